@@ -0,0 +1,136 @@
+package rest.addressbook.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The stored results of a reference run of a scenario. Baselines depend on the
+ * machine, so they should be recorded (with {@code -Pload.updateBaseline=true}) on
+ * the machine that later checks against them.
+ */
+public class Baseline {
+
+  private static final String THROUGHPUT = "throughput";
+  private static final String P99 = "p99";
+  private static final String P999 = "p99.9";
+  private static final String ERROR_RATE = "errorRate";
+  private static final String STARTUP = "startup.";
+  private static final String LISTEN = ".listen";
+  private static final String FIRST_RESPONSE = ".firstResponse";
+
+  private final Properties values;
+
+  private Baseline(Properties values) {
+    this.values = values;
+  }
+
+  /**
+   * Reads a baseline.
+   *
+   * @param file the baseline file
+   * @return the baseline or null if the file does not exist.
+   * @throws IOException if the file cannot be read.
+   */
+  public static Baseline load(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    Properties values = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      values.load(in);
+    }
+    return new Baseline(values);
+  }
+
+  /**
+   * Stores the results of a run as the new baseline.
+   *
+   * @param file     the baseline file
+   * @param scenario the name of the scenario
+   * @param report   the results of the run
+   * @throws IOException if the file cannot be written.
+   */
+  public static void save(Path file, String scenario, LoadReport report) throws IOException {
+    Properties values = new Properties();
+    values.setProperty(THROUGHPUT, format(report.getThroughput()));
+    values.setProperty(P99, format(report.getLatency(99)));
+    values.setProperty(P999, format(report.getLatency(99.9)));
+    values.setProperty(ERROR_RATE, format(report.getErrorRate()));
+    for (Map.Entry<String, StartupProbe.Timing> entry : report.getStartup().entrySet()) {
+      String prefix = STARTUP + entry.getKey();
+      values.setProperty(prefix + LISTEN, format(entry.getValue().getListenMillis()));
+      values.setProperty(prefix + FIRST_RESPONSE,
+        format(entry.getValue().getFirstResponseMillis()));
+    }
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    try (OutputStream out = Files.newOutputStream(file)) {
+      values.store(out, "Load test baseline of " + scenario);
+    }
+  }
+
+  /**
+   * Compares a run with this baseline.
+   *
+   * @param report   the results of the run
+   * @param settings the tolerances
+   * @return a description of each regression, empty if there is none.
+   */
+  public List<String> regressions(LoadReport report, LoadSettings settings) {
+    List<String> found = new ArrayList<>();
+    double throughput = get(THROUGHPUT);
+    if (report.getThroughput() < throughput * (1 - settings.getThroughputTolerance())) {
+      found.add(String.format(Locale.ROOT, "throughput %.1f req/s is below baseline %.1f req/s",
+        report.getThroughput(), throughput));
+    }
+    checkMillis(found, P99, P99 + " latency", report.getLatency(99),
+      settings.getLatencyTolerance());
+    checkMillis(found, P999, P999 + " latency", report.getLatency(99.9),
+      settings.getLatencyTolerance());
+    double errorRate = get(ERROR_RATE);
+    if (report.getErrorRate() > errorRate + settings.getErrorTolerance()) {
+      found.add(String.format(Locale.ROOT, "error rate %.4f is above baseline %.4f",
+        report.getErrorRate(), errorRate));
+    }
+    for (Map.Entry<String, StartupProbe.Timing> entry : report.getStartup().entrySet()) {
+      String prefix = STARTUP + entry.getKey();
+      if (values.containsKey(prefix + LISTEN)) {
+        checkMillis(found, prefix + LISTEN, entry.getKey() + " time to listen",
+          entry.getValue().getListenMillis(), settings.getStartupTolerance());
+        checkMillis(found, prefix + FIRST_RESPONSE, entry.getKey() + " time to first response",
+          entry.getValue().getFirstResponseMillis(), settings.getStartupTolerance());
+      }
+    }
+    return found;
+  }
+
+  private void checkMillis(List<String> found, String key, String name, double millis,
+                           double tolerance) {
+    double baseline = get(key);
+    if (millis > baseline * (1 + tolerance)) {
+      found.add(String.format(Locale.ROOT, "%s %.2f ms is above baseline %.2f ms",
+        name, millis, baseline));
+    }
+  }
+
+  private double get(String key) {
+    String value = values.getProperty(key);
+    if (value == null) {
+      throw new IllegalStateException("Baseline has no value for " + key);
+    }
+    return Double.parseDouble(value);
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+}
@@ -0,0 +1,209 @@
+package rest.addressbook.load;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * An open-loop load generator. Requests are scheduled at a fixed rate and each
+ * latency is measured from the time the request was scheduled to be sent, not
+ * from the time it was actually sent. When the service (or the limit of requests
+ * in flight) delays the generator, the waiting time is therefore accounted for
+ * instead of being silently omitted (coordinated omission).
+ */
+public class LoadGenerator {
+
+  private final LoadSettings settings;
+  private final WebTarget contacts;
+  private final AtomicInteger highestId;
+  private final Semaphore inFlight;
+  private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> misses = new EnumMap<>(Operation.class);
+
+  /**
+   * Main constructor
+   *
+   * @param settings  the settings of the run
+   * @param client    an asynchronous capable client
+   * @param base      the base URI of the service
+   * @param highestId the highest identifier known to exist in the address book
+   */
+  public LoadGenerator(LoadSettings settings, Client client, URI base, int highestId) {
+    this.settings = settings;
+    this.contacts = client.target(base).path("contacts");
+    this.highestId = new AtomicInteger(highestId);
+    this.inFlight = new Semaphore(settings.getConcurrency());
+    for (Operation op : Operation.values()) {
+      latencies.put(op, new Recorder(3));
+      errors.put(op, new LongAdder());
+      misses.put(op, new LongAdder());
+    }
+  }
+
+  /**
+   * Runs the warm-up, discards its results, and then runs the measurement.
+   *
+   * @return the report of the measurement.
+   */
+  public LoadReport run() {
+    if (settings.getWarmupSeconds() > 0) {
+      drive(settings.getWarmupSeconds());
+      reset();
+    }
+    long start = System.nanoTime();
+    drive(settings.getDurationSeconds());
+    long elapsed = System.nanoTime() - start;
+
+    Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+    Map<Operation, Long> missCounts = new EnumMap<>(Operation.class);
+    for (Operation op : Operation.values()) {
+      histograms.put(op, latencies.get(op).getIntervalHistogram());
+      errorCounts.put(op, errors.get(op).sum());
+      missCounts.put(op, misses.get(op).sum());
+    }
+    return new LoadReport(histograms, errorCounts, missCounts, elapsed);
+  }
+
+  private void reset() {
+    for (Operation op : Operation.values()) {
+      latencies.get(op).reset();
+      errors.get(op).reset();
+      misses.get(op).reset();
+    }
+  }
+
+  private void drive(int seconds) {
+    long interval = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(seconds);
+    for (long intended = start; intended < end; intended += interval) {
+      // parkNanos may return early
+      for (long wait = intended - System.nanoTime(); wait > 0;
+           wait = intended - System.nanoTime()) {
+        LockSupport.parkNanos(wait);
+      }
+      inFlight.acquireUninterruptibly();
+      send(settings.nextOperation(), intended);
+    }
+    // Wait for the requests still in flight
+    inFlight.acquireUninterruptibly(settings.getConcurrency());
+    inFlight.release(settings.getConcurrency());
+  }
+
+  private void send(final Operation op, final long intended) {
+    InvocationCallback<Response> callback = new InvocationCallback<Response>() {
+
+      @Override
+      public void completed(Response response) {
+        try {
+          int status = response.getStatus();
+          if (response.hasEntity()) {
+            response.readEntity(String.class);
+          }
+          if (op == Operation.CREATE && status == 201) {
+            observeCreated(response.getLocation());
+          }
+          if (op.isMiss(status)) {
+            misses.get(op).increment();
+          } else if (status >= 300) {
+            errors.get(op).increment();
+          }
+        } finally {
+          response.close();
+          record(op, intended);
+        }
+      }
+
+      @Override
+      public void failed(Throwable throwable) {
+        errors.get(op).increment();
+        record(op, intended);
+      }
+    };
+
+    try {
+      invoke(op, callback);
+    } catch (RuntimeException e) {
+      // The callback will never be called
+      callback.failed(e);
+    }
+  }
+
+  private void invoke(Operation op, InvocationCallback<Response> callback) {
+    switch (op) {
+      case LIST:
+        contacts.request(MediaType.APPLICATION_JSON).async().get(callback);
+        break;
+      case READ:
+        person(randomId()).request(MediaType.APPLICATION_JSON).async().get(callback);
+        break;
+      case CREATE:
+        contacts.request(MediaType.APPLICATION_JSON).async()
+          .post(Entity.json(randomPerson()), callback);
+        break;
+      case UPDATE:
+        person(randomId()).request(MediaType.APPLICATION_JSON).async()
+          .put(Entity.json(randomPerson()), callback);
+        break;
+      case DELETE:
+        person(randomId()).request().async().delete(callback);
+        break;
+      default:
+        throw new IllegalStateException("Unknown operation " + op);
+    }
+  }
+
+  private void record(Operation op, long intended) {
+    latencies.get(op).recordValue(
+      TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+    inFlight.release();
+  }
+
+  private void observeCreated(URI location) {
+    if (location == null) {
+      return;
+    }
+    String path = location.getPath();
+    try {
+      int id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+      highestId.accumulateAndGet(id, Math::max);
+    } catch (NumberFormatException e) {
+      // Not an identifier we can target later on
+    }
+  }
+
+  private WebTarget person(int id) {
+    return contacts.path("person").path(Integer.toString(id));
+  }
+
+  /**
+   * Identifiers are drawn from all that have ever been handed out, so reads,
+   * updates and deletes of entries already deleted are expected misses.
+   */
+  private int randomId() {
+    return 1 + ThreadLocalRandom.current().nextInt(Math.max(1, highestId.get()));
+  }
+
+  private static String randomPerson() {
+    int n = ThreadLocalRandom.current().nextInt(1_000_000);
+    return "{\"name\":\"Person " + n + "\","
+      + "\"email\":\"person" + n + "@example.org\","
+      + "\"phoneList\":[{\"number\":\"" + (600000000 + n) + "\",\"type\":\"MOBILE\"}]}";
+  }
+}
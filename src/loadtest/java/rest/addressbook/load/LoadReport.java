@@ -0,0 +1,136 @@
+package rest.addressbook.load;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput, tail latency and error counts of a measured load run. Latencies are
+ * kept in microseconds and reported in milliseconds.
+ */
+public class LoadReport {
+
+  private final Map<Operation, Histogram> histograms;
+  private final Map<Operation, Long> errors;
+  private final Map<Operation, Long> misses;
+  private final Histogram overall;
+  private final long elapsedNanos;
+  private final Map<String, StartupProbe.Timing> startup = new LinkedHashMap<>();
+
+  /**
+   * Main constructor
+   *
+   * @param histograms   the latencies of each operation
+   * @param errors       the number of failed requests of each operation
+   * @param misses       the number of requests of each operation that targeted a missing entry
+   * @param elapsedNanos the length of the measurement
+   */
+  public LoadReport(Map<Operation, Histogram> histograms, Map<Operation, Long> errors,
+                    Map<Operation, Long> misses, long elapsedNanos) {
+    this.histograms = histograms;
+    this.errors = errors;
+    this.misses = misses;
+    this.elapsedNanos = elapsedNanos;
+    this.overall = new Histogram(3);
+    for (Histogram histogram : histograms.values()) {
+      overall.add(histogram);
+    }
+  }
+
+  /**
+   * Records the startup of the server in a given mode.
+   *
+   * @param mode   the name of the startup mode
+   * @param timing the startup measured by a {@link StartupProbe}
+   */
+  public void addStartup(String mode, StartupProbe.Timing timing) {
+    startup.put(mode, timing);
+  }
+
+  /**
+   * The startup of the server in each mode that was measured.
+   *
+   * @return the timings by mode, empty if startup was not measured.
+   */
+  public Map<String, StartupProbe.Timing> getStartup() {
+    return startup;
+  }
+
+  /**
+   * Completed requests per second.
+   *
+   * @return the throughput.
+   */
+  public double getThroughput() {
+    return overall.getTotalCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+  }
+
+  /**
+   * The latency of all operations at a given percentile.
+   *
+   * @param percentile a percentile between 0 and 100
+   * @return the latency in milliseconds.
+   */
+  public double getLatency(double percentile) {
+    return millis(overall.getValueAtPercentile(percentile));
+  }
+
+  /**
+   * The fraction of completed requests that failed.
+   *
+   * @return the error rate between 0 and 1.
+   */
+  public double getErrorRate() {
+    long total = overall.getTotalCount();
+    long failed = 0;
+    for (long count : errors.values()) {
+      failed += count;
+    }
+    return total == 0 ? 0 : failed / (double) total;
+  }
+
+  /**
+   * Prints a summary table of the run.
+   *
+   * @param out where the summary is printed
+   */
+  public void print(PrintStream out) {
+    out.printf("%-8s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+      "op", "count", "errors", "misses", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+      Operation op = entry.getKey();
+      printRow(out, op.name(), entry.getValue(), errors.get(op), misses.get(op));
+    }
+    long failed = 0;
+    long missed = 0;
+    for (Operation op : histograms.keySet()) {
+      failed += errors.get(op);
+      missed += misses.get(op);
+    }
+    printRow(out, "ALL", overall, failed, missed);
+    out.printf("throughput %.1f req/s, error rate %.4f, over %.1f s%n",
+      getThroughput(), getErrorRate(), elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    for (Map.Entry<String, StartupProbe.Timing> entry : startup.entrySet()) {
+      out.printf("startup %-8s listening at %6.0f ms, first response at %6.0f ms%n",
+        entry.getKey(), entry.getValue().getListenMillis(),
+        entry.getValue().getFirstResponseMillis());
+    }
+  }
+
+  private static void printRow(PrintStream out, String name, Histogram histogram,
+                               long failed, long missed) {
+    out.printf("%-8s %9d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+      name, histogram.getTotalCount(), failed, missed,
+      millis(histogram.getValueAtPercentile(50)),
+      millis(histogram.getValueAtPercentile(90)),
+      millis(histogram.getValueAtPercentile(99)),
+      millis(histogram.getValueAtPercentile(99.9)),
+      millis(histogram.getMaxValue()));
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+}
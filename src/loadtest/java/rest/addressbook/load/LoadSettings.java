@@ -0,0 +1,241 @@
+package rest.addressbook.load;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The settings of a load run, read from system properties. The Gradle task
+ * {@code loadTest} forwards any {@code -Pload.<name>=<value>} as a system property.
+ * <ul>
+ *   <li>{@code load.target}: base URI of a running service; by default an embedded
+ *   server is started on {@code load.port} (8383).</li>
+ *   <li>{@code load.startupSamples}: with the embedded server, the number of servers
+ *   forked in each startup mode (default, startup-optimized and, when
+ *   {@code load.cdsArchive} names an AppCDS archive, startup-optimized with that
+ *   archive) to measure the median time to listen and to serve the first request
+ *   (3, 0 to skip). They run with {@code load.serverClasspath}, by default the
+ *   classpath of the load test.</li>
+ *   <li>{@code load.concurrency}: maximum number of requests in flight (16).</li>
+ *   <li>{@code load.rate}: requests per second that are scheduled (500).</li>
+ *   <li>{@code load.bookSize}: contacts in the address book at start (100). The
+ *   embedded address book is seeded with them; a target that has fewer is topped up
+ *   with POST requests.</li>
+ *   <li>{@code load.warmup} and {@code load.duration}: seconds of warm-up and of
+ *   measurement (5 and 30).</li>
+ *   <li>{@code load.mix}: weights of each operation, among {@code list}, {@code read},
+ *   {@code create}, {@code update} and {@code delete} ({@code list=20,read=80}).</li>
+ *   <li>{@code load.baselineDir}: where baselines are stored ({@code loadtest/baselines}).</li>
+ *   <li>{@code load.updateBaseline}: overwrite the baseline with this run (false).</li>
+ *   <li>{@code load.throughputTolerance}, {@code load.latencyTolerance} and
+ *   {@code load.errorTolerance}: allowed relative drop of throughput (0.10), relative
+ *   increase of tail latency (0.20) and absolute increase of error rate (0.01).</li>
+ *   <li>{@code load.startupTolerance}: allowed relative increase of the startup
+ *   times (0.50), which are medians of a few samples only.</li>
+ * </ul>
+ * The default mix is read-only because {@code AddressBook} is not thread safe: with
+ * concurrent writes some requests fail (e.g. with a 500 caused by a
+ * {@code ConcurrentModificationException}) because of races in the service, not
+ * because of a performance regression, and the address book may be corrupted.
+ * Mixes with writes are only deterministic with a concurrency of 1.
+ */
+public class LoadSettings {
+
+  private static final String DEFAULT_MIX = "list=20,read=80";
+
+  private final String target;
+  private final int port;
+  private final int startupSamples;
+  private final String serverClasspath;
+  private final String cdsArchive;
+  private final int concurrency;
+  private final int rate;
+  private final int bookSize;
+  private final int warmupSeconds;
+  private final int durationSeconds;
+  private final Map<Operation, Integer> mix;
+  private final int totalWeight;
+  private final String baselineDir;
+  private final boolean updateBaseline;
+  private final double throughputTolerance;
+  private final double latencyTolerance;
+  private final double errorTolerance;
+  private final double startupTolerance;
+
+  /**
+   * Reads the settings from the system properties.
+   */
+  public LoadSettings() {
+    target = System.getProperty("load.target");
+    port = Integer.getInteger("load.port", 8383);
+    startupSamples = Integer.getInteger("load.startupSamples", 3);
+    serverClasspath = System.getProperty("load.serverClasspath",
+      System.getProperty("java.class.path"));
+    cdsArchive = System.getProperty("load.cdsArchive");
+    concurrency = positive("load.concurrency", 16);
+    rate = positive("load.rate", 500);
+    bookSize = Integer.getInteger("load.bookSize", 100);
+    warmupSeconds = Integer.getInteger("load.warmup", 5);
+    durationSeconds = positive("load.duration", 30);
+    mix = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+    int sum = 0;
+    for (int weight : mix.values()) {
+      sum += weight;
+    }
+    totalWeight = sum;
+    baselineDir = System.getProperty("load.baselineDir", "loadtest/baselines");
+    updateBaseline = Boolean.getBoolean("load.updateBaseline");
+    throughputTolerance = fraction("load.throughputTolerance", 0.10);
+    latencyTolerance = fraction("load.latencyTolerance", 0.20);
+    errorTolerance = fraction("load.errorTolerance", 0.01);
+    startupTolerance = fraction("load.startupTolerance", 0.50);
+  }
+
+  private static int positive(String key, int defaultValue) {
+    int value = Integer.getInteger(key, defaultValue);
+    if (value <= 0) {
+      throw new IllegalArgumentException(key + " must be positive: " + value);
+    }
+    return value;
+  }
+
+  private static double fraction(String key, double defaultValue) {
+    String value = System.getProperty(key);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  private static Map<Operation, Integer> parseMix(String spec) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : spec.split(",")) {
+      String[] pair = entry.trim().split("=");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Malformed load.mix entry: " + entry);
+      }
+      int weight = Integer.parseInt(pair[1].trim());
+      if (weight > 0) {
+        weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("load.mix has no operation: " + spec);
+    }
+    return weights;
+  }
+
+  /**
+   * Picks an operation at random according to the weights of the mix.
+   *
+   * @return an operation.
+   */
+  public Operation nextOperation() {
+    int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+      pick -= entry.getValue();
+      if (pick < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("Unreachable");
+  }
+
+  /**
+   * Tells whether the mix contains operations that modify the address book.
+   *
+   * @return true if there are writes in the mix.
+   */
+  public boolean hasWrites() {
+    return mix.containsKey(Operation.CREATE) || mix.containsKey(Operation.UPDATE)
+      || mix.containsKey(Operation.DELETE);
+  }
+
+  /**
+   * A name that identifies the service under load and the shape of the load,
+   * used to key the baseline.
+   *
+   * @return the scenario name.
+   */
+  public String getScenario() {
+    StringBuilder name = new StringBuilder();
+    if (target == null) {
+      name.append("embedded");
+    } else {
+      URI uri = URI.create(target);
+      name.append(uri.getHost()).append('_').append(uri.getPort());
+    }
+    name.append("-c").append(concurrency)
+      .append("-r").append(rate)
+      .append("-b").append(bookSize)
+      .append("-w").append(warmupSeconds)
+      .append("-d").append(durationSeconds);
+    for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+      name.append('-').append(entry.getKey().name().toLowerCase(Locale.ROOT)).append(entry.getValue());
+    }
+    return name.toString();
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public int getStartupSamples() {
+    return startupSamples;
+  }
+
+  public String getServerClasspath() {
+    return serverClasspath;
+  }
+
+  public String getCdsArchive() {
+    return cdsArchive;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public int getRate() {
+    return rate;
+  }
+
+  public int getBookSize() {
+    return bookSize;
+  }
+
+  public int getWarmupSeconds() {
+    return warmupSeconds;
+  }
+
+  public int getDurationSeconds() {
+    return durationSeconds;
+  }
+
+  public String getBaselineDir() {
+    return baselineDir;
+  }
+
+  public boolean isUpdateBaseline() {
+    return updateBaseline;
+  }
+
+  public double getThroughputTolerance() {
+    return throughputTolerance;
+  }
+
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  public double getErrorTolerance() {
+    return errorTolerance;
+  }
+
+  public double getStartupTolerance() {
+    return startupTolerance;
+  }
+}
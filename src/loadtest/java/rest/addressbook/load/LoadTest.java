@@ -0,0 +1,192 @@
+package rest.addressbook.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriBuilder;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.client.ClientProperties;
+import rest.addressbook.Server;
+import rest.addressbook.domain.AddressBook;
+import rest.addressbook.domain.Person;
+import rest.addressbook.domain.PhoneNumber;
+import rest.addressbook.domain.PhoneType;
+
+/**
+ * Runs a load scenario against the address book service and checks the results
+ * against the stored baseline of the scenario. The process exits with status 1
+ * when a regression is found, or when there is no baseline to check against, so
+ * that the {@code loadTest} Gradle task fails. Baselines depend on the machine and
+ * are not committed: record one with {@code -Pload.updateBaseline=true} first.
+ * Errors reported under a mix with concurrent writes may come from races in the
+ * (not thread safe) address book rather than from a regression, see
+ * {@link LoadSettings}. Against a target, the ids of the existing contacts are
+ * read first and the address book is topped up to {@code load.bookSize}.
+ * When the server is embedded, the time forked servers take to listen and to serve
+ * their first request, in each startup mode, are tracked in the baseline too.
+ */
+public class LoadTest {
+  private static final Logger LOGGER = Grizzly.logger(LoadTest.class);
+
+  public static void main(String[] args) {
+    LoadSettings settings = new LoadSettings();
+    // HttpURLConnection keeps at most 5 idle connections per host by default
+    System.setProperty("http.maxConnections", Integer.toString(settings.getConcurrency()));
+
+    Client client = ClientBuilder.newBuilder()
+      .property(ClientProperties.ASYNC_THREADPOOL_SIZE, settings.getConcurrency())
+      .build();
+    HttpServer server = null;
+    URI base;
+    int highestId;
+    AddressBook ab = null;
+    if (settings.getTarget() == null) {
+      ab = newAddressBook(settings.getBookSize());
+      highestId = ab.getNextId() - 1;
+      base = UriBuilder.fromUri("http://localhost/").port(settings.getPort()).build();
+    } else {
+      base = URI.create(settings.getTarget());
+      highestId = 0;
+    }
+    if (settings.hasWrites() && settings.getConcurrency() > 1) {
+      LOGGER.warning("Concurrent writes race in AddressBook, errors may not be regressions");
+    }
+
+    boolean passed;
+    try {
+      Map<String, StartupProbe.Timing> startup = new LinkedHashMap<>();
+      if (ab == null) {
+        highestId = prepareTarget(client, base, settings.getBookSize());
+      } else {
+        if (settings.getStartupSamples() > 0) {
+          startup = measureStartup(settings);
+        }
+        server = Server.create(base, ab, false);
+        server.start();
+      }
+
+      LOGGER.info("Running scenario " + settings.getScenario() + " against " + base);
+      LoadReport report = new LoadGenerator(settings, client, base, highestId).run();
+      for (Map.Entry<String, StartupProbe.Timing> entry : startup.entrySet()) {
+        report.addStartup(entry.getKey(), entry.getValue());
+      }
+      report.print(System.out);
+      passed = checkBaseline(settings, report);
+    } catch (IOException | ProcessingException e) {
+      LOGGER.log(Level.SEVERE, e.toString(), e);
+      passed = false;
+    } finally {
+      client.close();
+      if (server != null) {
+        server.shutdownNow();
+      }
+    }
+    System.exit(passed ? 0 : 1);
+  }
+
+  /**
+   * Measures the startup of forked servers in default mode, in startup-optimized
+   * mode and, if there is an archive, in startup-optimized mode with AppCDS.
+   */
+  private static Map<String, StartupProbe.Timing> measureStartup(LoadSettings settings)
+    throws IOException {
+    StartupProbe probe = new StartupProbe(settings.getServerClasspath(), settings.getPort());
+    Map<String, List<String>> modes = new LinkedHashMap<>();
+    modes.put("default", Collections.<String>emptyList());
+    modes.put("fast", Collections.singletonList("-Daddressbook.fastStartup=true"));
+    if (settings.getCdsArchive() != null) {
+      // -Xshare:on fails instead of silently ignoring an archive that does not match
+      modes.put("cds", Arrays.asList("-Daddressbook.fastStartup=true",
+        "-XX:SharedArchiveFile=" + settings.getCdsArchive(), "-Xshare:on"));
+    }
+    Map<String, StartupProbe.Timing> startup = new LinkedHashMap<>();
+    for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+      LOGGER.info("Measuring startup in " + mode.getKey() + " mode");
+      startup.put(mode.getKey(), probe.measure(mode.getValue(), settings.getStartupSamples()));
+    }
+    return startup;
+  }
+
+  private static boolean checkBaseline(LoadSettings settings, LoadReport report)
+    throws IOException {
+    Path file = Paths.get(settings.getBaselineDir(), settings.getScenario() + ".properties");
+    if (settings.isUpdateBaseline()) {
+      Baseline.save(file, settings.getScenario(), report);
+      LOGGER.info("Baseline recorded in " + file);
+      return true;
+    }
+    Baseline baseline = Baseline.load(file);
+    if (baseline == null) {
+      LOGGER.warning("No baseline in " + file
+        + ", record one with -Pload.updateBaseline=true");
+      return false;
+    }
+    List<String> regressions = baseline.regressions(report, settings);
+    for (String regression : regressions) {
+      LOGGER.severe("Regression: " + regression);
+    }
+    if (regressions.isEmpty()) {
+      LOGGER.info("No regression against " + file);
+    }
+    return regressions.isEmpty();
+  }
+
+  /**
+   * Reads the contacts of a running service and adds new ones until there are
+   * {@code bookSize}.
+   *
+   * @return the highest identifier in the address book.
+   */
+  private static int prepareTarget(Client client, URI base, int bookSize) {
+    WebTarget contacts = client.target(base).path("contacts");
+    AddressBook book = contacts.request(MediaType.APPLICATION_JSON).get(AddressBook.class);
+    int highestId = 0;
+    for (Person person : book.getPersonList()) {
+      highestId = Math.max(highestId, person.getId());
+    }
+    int size = book.getPersonList().size();
+    for (int i = size; i < bookSize; i++) {
+      Person created = contacts.request(MediaType.APPLICATION_JSON)
+        .post(Entity.entity(newPerson(highestId + 1), MediaType.APPLICATION_JSON), Person.class);
+      highestId = Math.max(highestId, created.getId());
+    }
+    LOGGER.info("Target has " + Math.max(size, bookSize) + " contacts, highest id " + highestId);
+    return highestId;
+  }
+
+  private static AddressBook newAddressBook(int size) {
+    AddressBook ab = new AddressBook();
+    for (int i = 0; i < size; i++) {
+      Person person = newPerson(ab.nextId());
+      ab.getPersonList().add(person);
+    }
+    return ab;
+  }
+
+  private static Person newPerson(int id) {
+    Person person = new Person();
+    person.setId(id);
+    person.setName("Person " + id);
+    person.setEmail("person" + id + "@example.org");
+    PhoneNumber phone = new PhoneNumber();
+    phone.setNumber(Integer.toString(600000000 + id));
+    phone.setType(PhoneType.MOBILE);
+    person.addPhone(phone);
+    return person;
+  }
+}
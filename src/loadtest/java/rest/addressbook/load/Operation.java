@@ -0,0 +1,27 @@
+package rest.addressbook.load;
+
+/**
+ * The kinds of request issued by the load generator.
+ */
+public enum Operation {
+  LIST, READ, CREATE, UPDATE, DELETE;
+
+  /**
+   * Tells whether a status code is the expected answer for an operation that
+   * targeted an entry that does not exist (any more).
+   *
+   * @param status the HTTP status code.
+   * @return true if the status is a miss and not an error.
+   */
+  public boolean isMiss(int status) {
+    switch (this) {
+      case READ:
+      case DELETE:
+        return status == 404;
+      case UPDATE:
+        return status == 400;
+      default:
+        return false;
+    }
+  }
+}
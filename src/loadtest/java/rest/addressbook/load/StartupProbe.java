@@ -0,0 +1,186 @@
+package rest.addressbook.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import rest.addressbook.Server;
+
+/**
+ * Measures the startup of the service in fresh JVMs. Each sample forks a
+ * {@link Server}, requests {@code GET /contacts} as soon as its port accepts
+ * connections, stops it, and reads from its log when, relative to the start of its
+ * JVM, it started listening and when it served that first request. Times are taken
+ * by the server itself, so they do not include any overhead of this client.
+ */
+public class StartupProbe {
+
+  private static final Pattern LISTENING =
+    Pattern.compile("Listening on \\S+ (\\d+) ms after JVM start");
+  private static final Pattern FIRST_REQUEST =
+    Pattern.compile("First request served in \\d+ ms, (\\d+) ms after JVM start");
+  private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final String classpath;
+  private final int port;
+
+  /**
+   * The startup of a server, in milliseconds after the start of its JVM.
+   */
+  public static class Timing {
+    private final double listenMillis;
+    private final double firstResponseMillis;
+
+    public Timing(double listenMillis, double firstResponseMillis) {
+      this.listenMillis = listenMillis;
+      this.firstResponseMillis = firstResponseMillis;
+    }
+
+    public double getListenMillis() {
+      return listenMillis;
+    }
+
+    public double getFirstResponseMillis() {
+      return firstResponseMillis;
+    }
+  }
+
+  /**
+   * Main constructor
+   *
+   * @param classpath the classpath of the forked servers
+   * @param port      the port the forked servers listen on
+   */
+  public StartupProbe(String classpath, int port) {
+    this.classpath = classpath;
+    this.port = port;
+  }
+
+  /**
+   * Starts a number of servers, one after the other.
+   *
+   * @param jvmOptions the options of the forked JVMs
+   * @param samples    the number of servers to start
+   * @return the median timing of the servers.
+   * @throws IOException if a server cannot be started, probed or stopped.
+   */
+  public Timing measure(List<String> jvmOptions, int samples) throws IOException {
+    double[] listen = new double[samples];
+    double[] firstResponse = new double[samples];
+    for (int i = 0; i < samples; i++) {
+      Timing timing = sample(jvmOptions);
+      listen[i] = timing.getListenMillis();
+      firstResponse[i] = timing.getFirstResponseMillis();
+    }
+    return new Timing(median(listen), median(firstResponse));
+  }
+
+  private Timing sample(List<String> jvmOptions) throws IOException {
+    // Also loads the client classes, so that they do not delay the first request
+    if (request()) {
+      throw new IOException("Port " + port + " is already in use");
+    }
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmOptions);
+    command.add("-cp");
+    command.add(classpath);
+    command.add("-Daddressbook.port=" + port);
+    command.add(Server.class.getName());
+
+    Path log = Files.createTempFile("addressbook-server", ".log");
+    try {
+      Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(log.toFile())
+        .start();
+      try {
+        awaitPort(process, log);
+        if (!request()) {
+          throw new IOException("First request to the server failed");
+        }
+        try (OutputStream in = process.getOutputStream()) {
+          in.write("s\n".getBytes(StandardCharsets.UTF_8));
+        }
+        if (!process.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          throw new IOException("Server did not stop");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while probing the server", e);
+      } finally {
+        process.destroyForcibly();
+      }
+      String output = new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+      return new Timing(find(LISTENING, output), find(FIRST_REQUEST, output));
+    } finally {
+      Files.deleteIfExists(log);
+    }
+  }
+
+  private void awaitPort(Process process, Path log)
+    throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      try (Socket socket = new Socket()) {
+        socket.connect(new InetSocketAddress("localhost", port), 100);
+        return;
+      } catch (IOException e) {
+        if (!process.isAlive()) {
+          throw new IOException("Server exited with status " + process.exitValue() + ":\n"
+            + new String(Files.readAllBytes(log), StandardCharsets.UTF_8));
+        }
+        Thread.sleep(5);
+      }
+    }
+    throw new IOException("Server did not listen on port " + port);
+  }
+
+  /**
+   * Sends {@code GET /contacts}.
+   *
+   * @return true if the request succeeded, false if nothing listens on the port.
+   */
+  private boolean request() throws IOException {
+    URL url = new URL("http", "localhost", port, "/contacts");
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Accept", "application/json");
+    try (InputStream in = connection.getInputStream()) {
+      while (in.read() != -1) { }
+      return true;
+    } catch (ConnectException e) {
+      return false;
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  private static double find(Pattern pattern, String output) throws IOException {
+    Matcher matcher = pattern.matcher(output);
+    if (!matcher.find()) {
+      throw new IOException("No \"" + pattern + "\" in the server log:\n" + output);
+    }
+    return Double.parseDouble(matcher.group(1));
+  }
+
+  private static double median(double[] values) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int middle = sorted.length / 2;
+    return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+  }
+}
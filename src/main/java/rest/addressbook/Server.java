@@ -1,20 +1,29 @@
 package rest.addressbook;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.util.Scanner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpContainer;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ContainerFactory;
 import rest.addressbook.config.ApplicationConfig;
+import rest.addressbook.config.StartupMetrics;
+import rest.addressbook.config.Warmup;
 import rest.addressbook.domain.AddressBook;
 import rest.addressbook.domain.Person;
 
 public class Server {
   private static final Logger LOGGER = Grizzly.logger(Server.class);
+  private static final int DEFAULT_WARMUP_ITERATIONS = 3;
 
   public static void main(String[] args) {
     LOGGER.setLevel(Level.FINER);
@@ -30,15 +39,24 @@ public class Server {
     ab.getPersonList().add(salvador);
     ab.getPersonList().add(juan);
 
-    URI uri = UriBuilder.fromUri("http://localhost/").port(8080).build();
-    HttpServer server = GrizzlyHttpServerFactory.createHttpServer(uri,
-      new ApplicationConfig(ab));
+    URI uri = UriBuilder.fromUri("http://localhost/")
+      .port(Integer.getInteger("addressbook.port", 8080)).build();
+    // Startup-optimized mode is selected with -Daddressbook.fastStartup=true
+    HttpServer server = create(uri, ab, Boolean.getBoolean("addressbook.fastStartup"),
+      Integer.getInteger("addressbook.warmupIterations", DEFAULT_WARMUP_ITERATIONS));
 
 
     LOGGER.info("Press 's'+'enter' to shutdown now the server...");
     try (Scanner scan = new Scanner(System.in)) {
       server.start();
-      while (!scan.nextLine().equals("s")) { }
+      LOGGER.info("Listening on " + uri + " " + StartupMetrics.uptime()
+        + " ms after JVM start");
+      if (Boolean.getBoolean("addressbook.probeAndExit")) {
+        // Serve a single request and stop, e.g. to record an AppCDS archive
+        probe(uri);
+      } else {
+        while (!scan.nextLine().equals("s")) { }
+      }
     } catch (IOException ioe) {
       LOGGER.log(Level.SEVERE, ioe.toString(), ioe);
     } finally {
@@ -47,4 +65,51 @@ public class Server {
       LOGGER.info("Server stopped");
     }
   }
+
+  /**
+   * Creates a server that is not started yet. In startup-optimized mode the
+   * request paths are warmed up {@value #DEFAULT_WARMUP_ITERATIONS} times before
+   * returning.
+   *
+   * @param uri         the URI the server will listen on
+   * @param ab          the address book to serve
+   * @param fastStartup true to select the startup-optimized mode
+   * @return the server.
+   */
+  public static HttpServer create(URI uri, AddressBook ab, boolean fastStartup) {
+    return create(uri, ab, fastStartup, DEFAULT_WARMUP_ITERATIONS);
+  }
+
+  /**
+   * Creates a server that is not started yet. In startup-optimized mode the
+   * request paths of the application are warmed up in memory before returning.
+   *
+   * @param uri              the URI the server will listen on
+   * @param ab               the address book to serve
+   * @param fastStartup      true to select the startup-optimized mode
+   * @param warmupIterations the number of warm-up rounds in startup-optimized mode
+   * @return the server.
+   */
+  public static HttpServer create(URI uri, AddressBook ab, boolean fastStartup,
+                                  int warmupIterations) {
+    ApplicationConfig config = new ApplicationConfig(ab, fastStartup);
+    config.register(StartupMetrics.class);
+    GrizzlyHttpContainer container = ContainerFactory.createContainer(
+      GrizzlyHttpContainer.class, config);
+    if (fastStartup) {
+      Warmup.run(container.getApplicationHandler(), warmupIterations);
+    }
+    return GrizzlyHttpServerFactory.createHttpServer(uri, container, false, null, false);
+  }
+
+  private static void probe(URI uri) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) uri.resolve("contacts").toURL()
+      .openConnection();
+    connection.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+    try (InputStream in = connection.getInputStream()) {
+      while (in.read() != -1) { }
+    }
+    LOGGER.info("Probe answered " + connection.getResponseCode());
+    connection.disconnect();
+  }
 }
@@ -3,6 +3,7 @@ package rest.addressbook.config;
 import org.eclipse.persistence.jaxb.rs.MOXyJsonProvider;
 import org.glassfish.jersey.internal.inject.AbstractBinder;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
 import rest.addressbook.domain.AddressBook;
 import rest.addressbook.web.AddressBookController;
 
@@ -22,6 +23,19 @@ public class ApplicationConfig extends ResourceConfig {
    * @param addressBook a provided address book
    */
   public ApplicationConfig(final AddressBook addressBook) {
+    this(addressBook, false);
+  }
+
+  /**
+   * Constructor that optionally selects the startup-optimized mode. In that mode
+   * nothing is discovered from the classpath (every provider is registered here),
+   * MOXy and WADL features are disabled and the JAXB context of the domain classes is
+   * shared and built once instead of on first use.
+   *
+   * @param addressBook a provided address book
+   * @param fastStartup true to select the startup-optimized mode
+   */
+  public ApplicationConfig(final AddressBook addressBook, boolean fastStartup) {
     register(AddressBookController.class);
     register(MOXyJsonProvider.class);
     register(new AbstractBinder() {
@@ -31,6 +45,13 @@ public class ApplicationConfig extends ResourceConfig {
         bind(addressBook).to(AddressBook.class);
       }
     });
+    if (fastStartup) {
+      register(DomainContextResolver.class);
+      property(ServerProperties.FEATURE_AUTO_DISCOVERY_DISABLE, true);
+      property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, true);
+      property(ServerProperties.MOXY_JSON_FEATURE_DISABLE, true);
+      property(ServerProperties.WADL_FEATURE_DISABLE, true);
+    }
   }
 
 }
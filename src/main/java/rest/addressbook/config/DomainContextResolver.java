@@ -0,0 +1,62 @@
+package rest.addressbook.config;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import org.eclipse.persistence.jaxb.JAXBContextFactory;
+import rest.addressbook.domain.AddressBook;
+import rest.addressbook.domain.Person;
+import rest.addressbook.domain.PhoneNumber;
+
+/**
+ * Provides to {@code MOXyJsonProvider} a single MOXy JAXB context for all the domain
+ * classes. The context is built once per JVM, the first time {@link #preload()} or
+ * {@link #getContext(Class)} is called, and shared by every application.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class DomainContextResolver implements ContextResolver<JAXBContext> {
+
+  private static final Class<?>[] DOMAIN_CLASSES = {
+    AddressBook.class, Person.class, PhoneNumber.class
+  };
+
+  /**
+   * Lazy holder of the shared context.
+   */
+  private static class Holder {
+    private static final JAXBContext CONTEXT = create();
+
+    private static JAXBContext create() {
+      try {
+        return JAXBContextFactory.createContext(DOMAIN_CLASSES, null);
+      } catch (JAXBException e) {
+        throw new IllegalStateException("Cannot build the JAXB context of the domain", e);
+      }
+    }
+  }
+
+  /**
+   * Builds the shared context if it has not been built yet.
+   */
+  public static void preload() {
+    getSharedContext();
+  }
+
+  private static JAXBContext getSharedContext() {
+    return Holder.CONTEXT;
+  }
+
+  @Override
+  public JAXBContext getContext(Class<?> type) {
+    for (Class<?> domainClass : DOMAIN_CLASSES) {
+      if (domainClass.equals(type)) {
+        return getSharedContext();
+      }
+    }
+    return null;
+  }
+}
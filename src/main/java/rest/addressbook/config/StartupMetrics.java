@@ -0,0 +1,53 @@
+package rest.addressbook.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * Logs when the application has been initialized and how long the first request
+ * took, both relative to the start of the JVM. Warm-up requests are ignored.
+ */
+public class StartupMetrics implements ApplicationEventListener {
+  private static final Logger LOGGER = Grizzly.logger(StartupMetrics.class);
+
+  private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+
+  /**
+   * Milliseconds since the JVM started.
+   *
+   * @return the uptime of the JVM.
+   */
+  public static long uptime() {
+    return ManagementFactory.getRuntimeMXBean().getUptime();
+  }
+
+  @Override
+  public void onEvent(ApplicationEvent event) {
+    if (event.getType() == ApplicationEvent.Type.INITIALIZATION_FINISHED) {
+      LOGGER.info("Application initialized " + uptime() + " ms after JVM start");
+    }
+  }
+
+  @Override
+  public RequestEventListener onRequest(RequestEvent requestEvent) {
+    if (requestEvent.getContainerRequest().getProperty(Warmup.PROPERTY) != null
+      || !firstRequest.compareAndSet(true, false)) {
+      return null;
+    }
+    final long start = System.nanoTime();
+    return event -> {
+      if (event.getType() == RequestEvent.Type.FINISHED) {
+        LOGGER.info("First request served in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, "
+          + uptime() + " ms after JVM start");
+      }
+    };
+  }
+}
@@ -0,0 +1,76 @@
+package rest.addressbook.config;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+
+/**
+ * Exercises the request paths of an application in memory, so that classes are
+ * loaded and hot code is compiled before the server opens its port. Only requests
+ * that do not modify the address book are sent: they target an identifier that
+ * never exists, which still reads and writes JSON.
+ */
+public final class Warmup {
+
+  /**
+   * Name of the request property that marks warm-up requests.
+   */
+  public static final String PROPERTY = "rest.addressbook.warmup";
+
+  private static final URI BASE = URI.create("http://localhost/");
+  private static final String MISSING = "contacts/person/-1";
+  private static final String PERSON = "{\"name\":\"Warmup\",\"email\":\"warmup@example.org\","
+    + "\"phoneList\":[{\"number\":\"600000000\",\"type\":\"MOBILE\"}]}";
+
+  private Warmup() {
+  }
+
+  /**
+   * Runs each operation of the service a number of times.
+   *
+   * @param handler    the handler of the application to warm up
+   * @param iterations the number of GET, PUT and DELETE rounds
+   */
+  public static void run(ApplicationHandler handler, int iterations) {
+    DomainContextResolver.preload();
+    for (int i = 0; i < iterations; i++) {
+      send(handler, "GET", "contacts", null, 200);
+      send(handler, "GET", MISSING, null, 404);
+      send(handler, "PUT", MISSING, PERSON, 400);
+      send(handler, "DELETE", MISSING, null, 404);
+    }
+  }
+
+  private static void send(ApplicationHandler handler, String method, String path,
+                           String json, int expected) {
+    ContainerRequest request = new ContainerRequest(BASE, BASE.resolve(path), method, null,
+      new MapPropertiesDelegate(), handler.getConfiguration());
+    request.setProperty(PROPERTY, true);
+    request.getHeaders().putSingle(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+    if (json != null) {
+      request.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+      request.setEntityStream(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+    ContainerResponse response;
+    try {
+      response = handler.apply(request).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Warm-up interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Warm-up request " + method + " /" + path + " failed",
+        e.getCause());
+    }
+    if (response.getStatus() != expected) {
+      throw new IllegalStateException("Warm-up request " + method + " /" + path
+        + " answered " + response.getStatus() + " instead of " + expected);
+    }
+  }
+}
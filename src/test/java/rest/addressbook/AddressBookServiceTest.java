@@ -311,6 +311,75 @@ public class AddressBookServiceTest {
     assertEquals(404, response.getStatus());
   }
 
+  @Test
+  public void fastStartupServesContacts() throws IOException {
+    // Prepare server in startup-optimized mode, with a short warm-up
+    AddressBook ab = new AddressBook();
+    Person salvador = new Person();
+    salvador.setName("Salvador");
+    salvador.setId(ab.nextId());
+    ab.getPersonList().add(salvador);
+    URI uri = UriBuilder.fromUri("http://localhost/").port(8282).build();
+    server = Server.create(uri, ab, true, 2);
+    server.start();
+
+    // Test list of contacts
+    Client client = ClientBuilder.newClient();
+    Response response = client.target("http://localhost:8282/contacts")
+      .request(MediaType.APPLICATION_JSON).get();
+    assertEquals(200, response.getStatus());
+    assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+    assertEquals(salvador.getName(), response.readEntity(AddressBook.class)
+      .getPersonList().get(0).getName());
+
+    // Create a new user
+    Person juan = new Person();
+    juan.setName("Juan");
+    juan.setEmail("juan@example.org");
+    URI juanURI = URI.create("http://localhost:8282/contacts/person/2");
+    response = client.target("http://localhost:8282/contacts")
+      .request(MediaType.APPLICATION_JSON)
+      .post(Entity.entity(juan, MediaType.APPLICATION_JSON));
+    assertEquals(201, response.getStatus());
+    assertEquals(juanURI, response.getLocation());
+    Person juanCreated = response.readEntity(Person.class);
+    assertEquals(juan.getName(), juanCreated.getName());
+    assertEquals(juan.getEmail(), juanCreated.getEmail());
+    assertEquals(2, juanCreated.getId());
+
+    // Update the new user
+    Person maria = new Person();
+    maria.setName("Maria");
+    response = client.target("http://localhost:8282/contacts/person/2")
+      .request(MediaType.APPLICATION_JSON)
+      .put(Entity.entity(maria, MediaType.APPLICATION_JSON));
+    assertEquals(200, response.getStatus());
+    Person mariaUpdated = response.readEntity(Person.class);
+    assertEquals(maria.getName(), mariaUpdated.getName());
+    assertEquals(2, mariaUpdated.getId());
+    assertEquals(juanURI, mariaUpdated.getHref());
+
+    // Warm-up does not leak into the served address book
+    assertEquals(2, ab.getPersonList().size());
+
+    // WADL is only disabled in startup-optimized mode
+    response = client.target("http://localhost:8282/application.wadl")
+      .request().get();
+    assertEquals(404, response.getStatus());
+  }
+
+  @Test
+  public void defaultModeServesWadl() throws IOException {
+    // Prepare server in default mode
+    launchServer(new AddressBook());
+
+    // WADL is generated unless startup-optimized mode disables it
+    Client client = ClientBuilder.newClient();
+    Response response = client.target("http://localhost:8282/application.wadl")
+      .request().get();
+    assertEquals(200, response.getStatus());
+  }
+
   private void launchServer(AddressBook ab) throws IOException {
     URI uri = UriBuilder.fromUri("http://localhost/").port(8282).build();
     server = GrizzlyHttpServerFactory.createHttpServer(uri,
@@ -0,0 +1,54 @@
+package rest.addressbook.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.junit.Test;
+import rest.addressbook.domain.AddressBook;
+import rest.addressbook.domain.Person;
+
+/**
+ * Tests of the startup-optimized mode.
+ */
+public class StartupModeTest {
+
+  @Test
+  public void fastStartupRegistersProvidersExplicitly() {
+    ApplicationConfig config = new ApplicationConfig(new AddressBook(), true);
+    assertTrue(config.getClasses().contains(DomainContextResolver.class));
+    assertEquals(true, config.getProperty(ServerProperties.FEATURE_AUTO_DISCOVERY_DISABLE));
+    assertEquals(true, config.getProperty(ServerProperties.WADL_FEATURE_DISABLE));
+  }
+
+  @Test
+  public void defaultModeDiscoversProviders() {
+    ApplicationConfig config = new ApplicationConfig(new AddressBook());
+    assertFalse(config.getClasses().contains(DomainContextResolver.class));
+    assertEquals(null, config.getProperty(ServerProperties.FEATURE_AUTO_DISCOVERY_DISABLE));
+  }
+
+  @Test
+  public void warmupDoesNotModifyAddressBook() {
+    AddressBook ab = new AddressBook();
+    Person salvador = new Person();
+    salvador.setName("Salvador");
+    salvador.setId(ab.nextId());
+    ab.getPersonList().add(salvador);
+
+    Warmup.run(new ApplicationHandler(new ApplicationConfig(ab, true)), 2);
+    assertEquals(1, ab.getPersonList().size());
+    assertEquals(salvador, ab.getPersonList().get(0));
+    assertEquals(2, ab.getNextId());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void failingWarmupThrows() {
+    // Without resources every warm-up request answers 404
+    Warmup.run(new ApplicationHandler(new ResourceConfig()), 1);
+  }
+}
@@ -0,0 +1,96 @@
+package rest.addressbook.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+import java.net.URI;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriBuilder;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of the load generator against a deliberately slow endpoint.
+ */
+public class LoadGeneratorTest {
+
+  private static final URI BASE = UriBuilder.fromUri("http://localhost/").port(8484).build();
+
+  private HttpServer server;
+  private Client client;
+
+  /**
+   * An endpoint that takes 100 ms to list the contacts.
+   */
+  @Path("/contacts")
+  public static class SlowContacts {
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public String list() throws InterruptedException {
+      Thread.sleep(100);
+      return "{}";
+    }
+  }
+
+  @Test
+  public void latencyIncludesQueueingDelay() {
+    server = GrizzlyHttpServerFactory.createHttpServer(BASE,
+      new ResourceConfig(SlowContacts.class));
+    client = ClientBuilder.newClient();
+
+    // 20 requests scheduled every 50 ms, but served one at a time every 100 ms
+    configure("20", "1");
+    LoadReport report = new LoadGenerator(new LoadSettings(), client, BASE, 0).run();
+
+    // Measured from the actual send, every request would take about 100 ms. Measured
+    // from the intended send, the n-th request also waits n * 50 ms in the queue.
+    assertEquals(0, report.getErrorRate(), 0);
+    assertTrue(report.getLatency(0) >= 100);
+    assertTrue(report.getLatency(50) >= 500);
+    assertTrue(report.getLatency(100) >= 1000);
+  }
+
+  @Test(timeout = 10000)
+  public void synchronousFailureReleasesPermit() {
+    client = ClientBuilder.newClient();
+    configure("10", "1");
+    LoadGenerator generator = new LoadGenerator(new LoadSettings(), client, BASE, 0);
+
+    // Requests of a closed client fail before being sent
+    client.close();
+    LoadReport report = generator.run();
+    assertEquals(1, report.getErrorRate(), 0);
+  }
+
+  private static void configure(String rate, String concurrency) {
+    System.setProperty("load.mix", "list=1");
+    System.setProperty("load.rate", rate);
+    System.setProperty("load.concurrency", concurrency);
+    System.setProperty("load.warmup", "0");
+    System.setProperty("load.duration", "1");
+  }
+
+  @After
+  public void shutdown() {
+    for (String key : new String[] {"load.mix", "load.rate", "load.concurrency",
+      "load.warmup", "load.duration"}) {
+      System.clearProperty(key);
+    }
+    if (client != null) {
+      client.close();
+    }
+    if (server != null) {
+      server.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package rest.addressbook.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the code that decides whether a load run passes or fails.
+ */
+public class LoadHarnessTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void clearSettings() {
+    System.clearProperty("load.mix");
+  }
+
+  @Test
+  public void baselineTolerances() throws IOException {
+    // Baseline of 110 req/s, p99 and p99.9 of 1 ms and no errors
+    Baseline baseline = baseline(110, 1.0, 0.0);
+    LoadSettings settings = new LoadSettings();
+
+    // 100 req/s is within 10% of 110 req/s, 1.19 ms within 20% of 1 ms
+    assertTrue(baseline.regressions(report(100, 1190, 0), settings).isEmpty());
+
+    // 1.21 ms is above the latency tolerance
+    List<String> found = baseline.regressions(report(100, 1210, 0), settings);
+    assertEquals(2, found.size());
+    assertTrue(found.get(0).startsWith("p99 latency"));
+    assertTrue(found.get(1).startsWith("p99.9 latency"));
+
+    // 98 req/s is below the throughput tolerance
+    found = baseline(112, 1.0, 0.0).regressions(report(98, 1000, 0), settings);
+    assertEquals(1, found.size());
+    assertTrue(found.get(0).startsWith("throughput"));
+
+    // 1 error in 100 requests is within the tolerance, 2 are not
+    assertTrue(baseline.regressions(report(100, 1000, 1), settings).isEmpty());
+    found = baseline.regressions(report(100, 1000, 2), settings);
+    assertEquals(1, found.size());
+    assertTrue(found.get(0).startsWith("error rate"));
+  }
+
+  @Test
+  public void startupTolerance() throws IOException {
+    // Startup times within 50% of the baseline pass
+    Baseline baseline = baseline(100, 1.0, 0.0,
+      "startup.fast.listen", "1000", "startup.fast.firstResponse", "1100");
+    LoadSettings settings = new LoadSettings();
+    LoadReport report = report(100, 1000, 0);
+    report.addStartup("fast", new StartupProbe.Timing(1490, 1600));
+    assertTrue(baseline.regressions(report, settings).isEmpty());
+
+    report.addStartup("fast", new StartupProbe.Timing(1510, 1600));
+    List<String> found = baseline.regressions(report, settings);
+    assertEquals(1, found.size());
+    assertTrue(found.get(0).startsWith("fast time to listen"));
+
+    // Modes missing from the baseline are not checked
+    report.addStartup("cds", new StartupProbe.Timing(5000, 5000));
+    assertEquals(1, baseline.regressions(report, settings).size());
+  }
+
+  @Test
+  public void missingBaseline() throws IOException {
+    assertEquals(null, Baseline.load(folder.getRoot().toPath().resolve("none.properties")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void malformedMix() {
+    System.setProperty("load.mix", "list=10,read");
+    new LoadSettings();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyMix() {
+    System.setProperty("load.mix", "list=0,read=0");
+    new LoadSettings();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownOperationInMix() {
+    System.setProperty("load.mix", "list=10,patch=5");
+    new LoadSettings();
+  }
+
+  @Test
+  public void singleOperationMix() {
+    System.setProperty("load.mix", "Read=3");
+    LoadSettings settings = new LoadSettings();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Operation.READ, settings.nextOperation());
+    }
+  }
+
+  @Test
+  public void missMapping() {
+    assertTrue(Operation.READ.isMiss(404));
+    assertTrue(Operation.DELETE.isMiss(404));
+    assertTrue(Operation.UPDATE.isMiss(400));
+    assertFalse(Operation.READ.isMiss(400));
+    assertFalse(Operation.UPDATE.isMiss(404));
+    assertFalse(Operation.DELETE.isMiss(400));
+    assertFalse(Operation.LIST.isMiss(404));
+    assertFalse(Operation.CREATE.isMiss(400));
+    assertFalse(Operation.READ.isMiss(500));
+  }
+
+  private Baseline baseline(double throughput, double latency, double errorRate,
+                            String... extra) throws IOException {
+    Properties values = new Properties();
+    values.setProperty("throughput", Double.toString(throughput));
+    values.setProperty("p99", Double.toString(latency));
+    values.setProperty("p99.9", Double.toString(latency));
+    values.setProperty("errorRate", Double.toString(errorRate));
+    for (int i = 0; i < extra.length; i += 2) {
+      values.setProperty(extra[i], extra[i + 1]);
+    }
+    Path file = folder.newFile().toPath();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      values.store(out, null);
+    }
+    return Baseline.load(file);
+  }
+
+  /**
+   * A one second run of {@code count} READ requests that all took {@code micros}.
+   */
+  private static LoadReport report(int count, long micros, long errors) {
+    Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+    Map<Operation, Long> missCounts = new EnumMap<>(Operation.class);
+    for (Operation op : Operation.values()) {
+      histograms.put(op, new Histogram(3));
+      errorCounts.put(op, 0L);
+      missCounts.put(op, 0L);
+    }
+    histograms.get(Operation.READ).recordValueWithCount(micros, count);
+    errorCounts.put(Operation.READ, errors);
+    return new LoadReport(histograms, errorCounts, missCounts, TimeUnit.SECONDS.toNanos(1));
+  }
+}